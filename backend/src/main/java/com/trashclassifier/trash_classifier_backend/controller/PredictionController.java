@@ -4,13 +4,18 @@ import com.trashclassifier.trash_classifier_backend.entity.Classification;
 import com.trashclassifier.trash_classifier_backend.entity.ClassificationScore;
 import com.trashclassifier.trash_classifier_backend.model.PredictionResponse;
 import com.trashclassifier.trash_classifier_backend.repository.ClassificationRepository;
+import com.trashclassifier.trash_classifier_backend.service.ImageStoreService;
 import com.trashclassifier.trash_classifier_backend.service.ModelService;
+import com.trashclassifier.trash_classifier_backend.service.StatisticsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +32,15 @@ public class PredictionController {
     @Autowired
     private ClassificationRepository classificationRepository;
 
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private ImageStoreService imageStoreService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @PostMapping("/predict")
     public ResponseEntity<?> predict(@RequestParam("image") MultipartFile file) {
         try {
@@ -54,6 +68,11 @@ public class PredictionController {
                 response.getConfidence(),
                 file.getOriginalFilename()
             );
+            classification.setModelVersion(modelService.getModelHash());
+
+            if (imageStoreService.isEnabled()) {
+                classification.setImageHash(imageStoreService.store(imageBytes));
+            }
 
             for (Map.Entry<String, Double> entry : response.getAllScores().entrySet()) {
                 ClassificationScore score = new ClassificationScore(
@@ -63,7 +82,11 @@ public class PredictionController {
                 classification.addScore(score);
             }
 
-            classificationRepository.save(classification);
+            statisticsService.underUpdateLock(() -> {
+                classificationRepository.save(classification);
+                statisticsService.recordClassification(classification.getPredictedClass(), classification.getCreatedAt());
+                return null;
+            });
 
             return ResponseEntity.ok(response);
 
@@ -94,19 +117,9 @@ public class PredictionController {
     @GetMapping("/statistics")
     public ResponseEntity<?> getStatistics() {
         try {
-            List<Object[]> countByClass = classificationRepository.countByPredictedClass();
-            
             Map<String, Object> statistics = new java.util.LinkedHashMap<>();
-            statistics.put("totalClassifications", classificationRepository.count());
-            
-            List<Map<String, Object>> classDistribution = new java.util.ArrayList<>();
-            for (Object[] row : countByClass) {
-                Map<String, Object> item = new java.util.LinkedHashMap<>();
-                item.put("name", row[0]);
-                item.put("count", row[1]);
-                classDistribution.add(item);
-            }
-            statistics.put("distribution", classDistribution);
+            statistics.put("totalClassifications", statisticsService.getTotal());
+            statistics.put("distribution", toDistributionList(statisticsService.getDistribution()));
             
             return ResponseEntity.ok(statistics);
         } catch (Exception e) {
@@ -116,6 +129,11 @@ public class PredictionController {
         }
     }
 
+    @GetMapping(value = "/statistics/stream", produces = "text/event-stream")
+    public SseEmitter streamStatistics() {
+        return statisticsService.subscribe();
+    }
+
     @Autowired
     private com.trashclassifier.trash_classifier_backend.repository.EnvironmentalImpactRepository environmentalImpactRepository;
 
@@ -153,8 +171,24 @@ public class PredictionController {
     @DeleteMapping("/history/{id}")
     public ResponseEntity<?> deleteClassification(@PathVariable Long id) {
         try {
-            if (classificationRepository.existsById(id)) {
-                classificationRepository.deleteById(id);
+            boolean deleted = statisticsService.underUpdateLock(() -> {
+                // The row lock makes overlapping deletes of the same id and the reclassification
+                // job wait, so the class read here is the one removed and only one delete counts it
+                Classification removed = transactionTemplate.execute(status -> {
+                    Optional<Classification> classification = classificationRepository.findByIdForUpdate(id);
+                    if (classification.isEmpty()) {
+                        return null;
+                    }
+                    classificationRepository.deleteScoresByClassificationId(id);
+                    return classificationRepository.deleteOneById(id) == 1 ? classification.get() : null;
+                });
+                if (removed == null) {
+                    return false;
+                }
+                statisticsService.removeClassification(removed.getPredictedClass(), removed.getCreatedAt());
+                return true;
+            });
+            if (deleted) {
                 return ResponseEntity.ok("Classification deleted successfully");
             } else {
                 return ResponseEntity.notFound().build();
@@ -169,7 +203,7 @@ public class PredictionController {
     @DeleteMapping("/history/clear")
     public ResponseEntity<?> clearAllHistory() {
         try {
-            classificationRepository.deleteAll();
+            statisticsService.clear(classificationRepository::deleteAll);
             return ResponseEntity.ok("All history cleared successfully");
         } catch (Exception e) {
             e.printStackTrace();
@@ -182,45 +216,32 @@ public class PredictionController {
     public ResponseEntity<?> getStatisticsByTimeframe(@RequestParam(defaultValue = "all") String timeframe) {
         try {
             LocalDateTime now = LocalDateTime.now();
+            LocalDate today = now.toLocalDate();
             LocalDateTime startDate;
+            Map<String, Long> distribution;
             
             switch (timeframe.toLowerCase()) {
                 case "week":
-                    startDate = now.minusDays(7);
+                    startDate = today.minusDays(6).atStartOfDay();
+                    distribution = statisticsService.getDistribution(startDate.toLocalDate(), today);
                     break;
                 case "month":
-                    startDate = now.minusDays(30);
+                    startDate = today.minusDays(29).atStartOfDay();
+                    distribution = statisticsService.getDistribution(startDate.toLocalDate(), today);
                     break;
                 case "all":
                 default:
                     startDate = LocalDateTime.of(2000, 1, 1, 0, 0);
+                    distribution = statisticsService.getDistribution();
                     break;
             }
             
-            List<Classification> filteredClassifications = 
-                classificationRepository.findByCreatedAtBetween(startDate, now);
-            
             Map<String, Object> statistics = new java.util.LinkedHashMap<>();
-            statistics.put("totalClassifications", filteredClassifications.size());
+            statistics.put("totalClassifications", distribution.values().stream().mapToLong(Long::longValue).sum());
             statistics.put("timeframe", timeframe);
             statistics.put("startDate", startDate);
             statistics.put("endDate", now);
-            
-            // Group by class
-            Map<String, Long> distribution = filteredClassifications.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                    Classification::getPredictedClass,
-                    java.util.stream.Collectors.counting()
-                ));
-            
-            List<Map<String, Object>> classDistribution = new java.util.ArrayList<>();
-            for (Map.Entry<String, Long> entry : distribution.entrySet()) {
-                Map<String, Object> item = new java.util.LinkedHashMap<>();
-                item.put("name", entry.getKey());
-                item.put("count", entry.getValue());
-                classDistribution.add(item);
-            }
-            statistics.put("distribution", classDistribution);
+            statistics.put("distribution", toDistributionList(distribution));
             
             // Daily/Monthly trend
             List<Map<String, Object>> dailyTrend = new java.util.ArrayList<>();
@@ -228,17 +249,15 @@ public class PredictionController {
             if (timeframe.equals("all")) {
                 // ΑΛΛΑΓΗ: Για "all time" δείχνουμε monthly trend για τους τελευταίους 12 μήνες
                 for (int i = 11; i >= 0; i--) {
-                    LocalDateTime monthStart = now.minusMonths(i).withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-                    LocalDateTime monthEnd = now.minusMonths(i).withDayOfMonth(
-                        now.minusMonths(i).toLocalDate().lengthOfMonth()
-                    ).withHour(23).withMinute(59).withSecond(59);
+                    LocalDate monthStart = today.minusMonths(i).withDayOfMonth(1);
                     
-                    long count = filteredClassifications.stream()
-                        .filter(c -> c.getCreatedAt().isAfter(monthStart) && c.getCreatedAt().isBefore(monthEnd))
-                        .count();
+                    long count = 0;
+                    for (LocalDate day = monthStart; day.getMonth() == monthStart.getMonth(); day = day.plusDays(1)) {
+                        count += statisticsService.getCountOnDay(day);
+                    }
                     
                     Map<String, Object> monthData = new java.util.LinkedHashMap<>();
-                    monthData.put("date", monthStart.toLocalDate().toString());
+                    monthData.put("date", monthStart.toString());
                     monthData.put("count", count);
                     dailyTrend.add(monthData);
                 }
@@ -247,16 +266,11 @@ public class PredictionController {
                 int days = timeframe.equals("week") ? 7 : 30;
                 
                 for (int i = days - 1; i >= 0; i--) {
-                    LocalDateTime dayStart = now.minusDays(i).withHour(0).withMinute(0).withSecond(0);
-                    LocalDateTime dayEnd = now.minusDays(i).withHour(23).withMinute(59).withSecond(59);
-                    
-                    long count = filteredClassifications.stream()
-                        .filter(c -> c.getCreatedAt().isAfter(dayStart) && c.getCreatedAt().isBefore(dayEnd))
-                        .count();
+                    LocalDate day = today.minusDays(i);
                     
                     Map<String, Object> dayData = new java.util.LinkedHashMap<>();
-                    dayData.put("date", dayStart.toLocalDate().toString());
-                    dayData.put("count", count);
+                    dayData.put("date", day.toString());
+                    dayData.put("count", statisticsService.getCountOnDay(day));
                     dailyTrend.add(dayData);
                 }
             }
@@ -270,4 +284,15 @@ public class PredictionController {
                     .body("Error fetching statistics: " + e.getMessage());
         }
     }
+
+    private List<Map<String, Object>> toDistributionList(Map<String, Long> distribution) {
+        List<Map<String, Object>> classDistribution = new java.util.ArrayList<>();
+        for (Map.Entry<String, Long> entry : distribution.entrySet()) {
+            Map<String, Object> item = new java.util.LinkedHashMap<>();
+            item.put("name", entry.getKey());
+            item.put("count", entry.getValue());
+            classDistribution.add(item);
+        }
+        return classDistribution;
+    }
 }
\ No newline at end of file
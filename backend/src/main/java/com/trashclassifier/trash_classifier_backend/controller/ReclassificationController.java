@@ -0,0 +1,56 @@
+package com.trashclassifier.trash_classifier_backend.controller;
+
+import com.trashclassifier.trash_classifier_backend.service.ImageStoreService;
+import com.trashclassifier.trash_classifier_backend.service.ReclassificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/reclassify")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ReclassificationController {
+
+    @Autowired
+    private ReclassificationService reclassificationService;
+
+    @Autowired
+    private ImageStoreService imageStoreService;
+
+    @PostMapping
+    public ResponseEntity<?> start(@RequestParam(defaultValue = "false") boolean restart) {
+        try {
+            if (!imageStoreService.isEnabled()) {
+                return ResponseEntity.badRequest().body("Image store is disabled (set image-store.enabled=true)");
+            }
+
+            if (!reclassificationService.start(restart)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("Reclassification is already running");
+            }
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(reclassificationService.getStatus());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error starting reclassification: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<?> stop() {
+        reclassificationService.stop();
+        return ResponseEntity.ok("Reclassification stop requested");
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<?> status() {
+        try {
+            return ResponseEntity.ok(reclassificationService.getStatus());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error fetching reclassification status: " + e.getMessage());
+        }
+    }
+}
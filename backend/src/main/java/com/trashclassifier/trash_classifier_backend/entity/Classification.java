@@ -22,6 +22,13 @@ public class Classification {
     @Column(name = "image_name", length = 255)
     private String imageName;
 
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
+
+    // Hash of the model that produced predictedClass
+    @Column(name = "model_version", length = 64)
+    private String modelVersion;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -74,6 +81,22 @@ public class Classification {
         this.imageName = imageName;
     }
 
+    public String getImageHash() {
+        return imageHash;
+    }
+
+    public void setImageHash(String imageHash) {
+        this.imageHash = imageHash;
+    }
+
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
+    public void setModelVersion(String modelVersion) {
+        this.modelVersion = modelVersion;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,101 @@
+package com.trashclassifier.trash_classifier_backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reclassification_checkpoints")
+public class ReclassificationCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 50)
+    private String jobName;
+
+    @Column(name = "model_hash", length = 64)
+    private String modelHash;
+
+    @Column(name = "last_processed_id", nullable = false)
+    private Long lastProcessedId = 0L;
+
+    @Column(nullable = false)
+    private Long processed = 0L;
+
+    @Column(nullable = false)
+    private Long changed = 0L;
+
+    @Column(nullable = false)
+    private Long skipped = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public ReclassificationCheckpoint() {
+    }
+
+    public ReclassificationCheckpoint(String jobName, String modelHash) {
+        this.jobName = jobName;
+        this.modelHash = modelHash;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public String getModelHash() {
+        return modelHash;
+    }
+
+    public void setModelHash(String modelHash) {
+        this.modelHash = modelHash;
+    }
+
+    public Long getLastProcessedId() {
+        return lastProcessedId;
+    }
+
+    public void setLastProcessedId(Long lastProcessedId) {
+        this.lastProcessedId = lastProcessedId;
+    }
+
+    public Long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(Long processed) {
+        this.processed = processed;
+    }
+
+    public Long getChanged() {
+        return changed;
+    }
+
+    public void setChanged(Long changed) {
+        this.changed = changed;
+    }
+
+    public Long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(Long skipped) {
+        this.skipped = skipped;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
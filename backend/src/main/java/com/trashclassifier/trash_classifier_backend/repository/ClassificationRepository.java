@@ -1,12 +1,17 @@
 package com.trashclassifier.trash_classifier_backend.repository;
 
 import com.trashclassifier.trash_classifier_backend.entity.Classification;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ClassificationRepository extends JpaRepository<Classification, Long> {
@@ -17,4 +22,22 @@ public interface ClassificationRepository extends JpaRepository<Classification,
     
     @Query("SELECT c.predictedClass, COUNT(c) FROM Classification c GROUP BY c.predictedClass")
     List<Object[]> countByPredictedClass();
+
+    @Query(value = "SELECT CAST(created_at AS DATE), predicted_class, COUNT(*) FROM classifications " +
+                   "GROUP BY CAST(created_at AS DATE), predicted_class", nativeQuery = true)
+    List<Object[]> countByDayAndPredictedClass();
+
+    // SELECT ... FOR UPDATE: holds the row until the surrounding transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Classification c WHERE c.id = :id")
+    Optional<Classification> findByIdForUpdate(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM ClassificationScore s WHERE s.classification.id = :id")
+    int deleteScoresByClassificationId(@Param("id") Long id);
+
+    // Returns the number of rows removed, 0 if another request deleted it first
+    @Modifying
+    @Query("DELETE FROM Classification c WHERE c.id = :id")
+    int deleteOneById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.trashclassifier.trash_classifier_backend.repository;
+
+import com.trashclassifier.trash_classifier_backend.entity.ReclassificationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReclassificationCheckpointRepository extends JpaRepository<ReclassificationCheckpoint, String> {
+}
@@ -0,0 +1,74 @@
+package com.trashclassifier.trash_classifier_backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed store for uploaded images on the local filesystem.
+ * Images are saved under their SHA-256 hash, so duplicate uploads share one file.
+ */
+@Service
+public class ImageStoreService {
+
+    @Value("${image-store.enabled:false}")
+    private boolean enabled;
+
+    @Value("${image-store.path:image-store}")
+    private String storePath;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String store(byte[] imageBytes) throws IOException {
+        String hash = sha256(imageBytes);
+        Path target = resolve(hash);
+
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            // Write to a temp file first so readers never see a partial image
+            Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+            try {
+                Files.write(temp, imageBytes);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        return hash;
+    }
+
+    public byte[] load(String hash) throws IOException {
+        return Files.readAllBytes(resolve(hash));
+    }
+
+    public boolean exists(String hash) {
+        return Files.exists(resolve(hash));
+    }
+
+    private Path resolve(String hash) {
+        if (!hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Invalid image hash: " + hash);
+        }
+        // Two-character prefix directories keep any single folder small
+        return Paths.get(storePath, hash.substring(0, 2), hash);
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
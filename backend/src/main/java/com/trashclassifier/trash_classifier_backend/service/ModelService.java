@@ -2,6 +2,9 @@ package com.trashclassifier.trash_classifier_backend.service;
 
 import ai.onnxruntime.*;
 import com.trashclassifier.trash_classifier_backend.model.PredictionResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
@@ -10,29 +13,58 @@ import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class ModelService {
 
+    private static final String MODEL_RESOURCE = "model_effb0_mixup.onnx";
+
+    // Path to the ONNX model on disk; empty means use the bundled classpath resource
+    @Value("${model.path:}")
+    private String modelPath;
+
+    // Directory where ONNX Runtime saves graph-optimized models; empty disables the cache
+    @Value("${model.optimized-cache-dir:}")
+    private String optimizedCacheDir;
+
+    @Value("${model.warmup.enabled:true}")
+    private boolean warmupEnabled;
+
     private OrtEnvironment env;
     private OrtSession session;
     private List<String> labels;
+    private String modelHash;
+    private boolean dynamicBatch;
+    private final AtomicBoolean firstPredictionLogged = new AtomicBoolean();
+    private final AtomicInteger activePredictions = new AtomicInteger();
 
     @PostConstruct
     public void loadModel() throws Exception {
         System.out.println("Loading ONNX model...");
+        long start = System.currentTimeMillis();
         
-        // 1. Load ONNX model
+        // 1. Load ONNX model straight from a file: ONNX Runtime reads it into native
+        //    memory (off-heap, no Java copy) instead of us loading it into a byte[]
         env = OrtEnvironment.getEnvironment();
-        ClassPathResource modelResource = new ClassPathResource("model_effb0_mixup.onnx");
-        
-        try (InputStream modelStream = modelResource.getInputStream()) {
-            byte[] modelBytes = modelStream.readAllBytes();
-            session = env.createSession(modelBytes);
-            System.out.println("ONNX model loaded successfully!");
-        }
+        String path = resolveModelPath();
+        modelHash = sha256(Paths.get(path));
+        session = createSession(path);
+        System.out.println("ONNX model loaded successfully in " + (System.currentTimeMillis() - start) + " ms!");
+
+        // A negative batch dimension means the model accepts several images per run
+        TensorInfo inputInfo = (TensorInfo) session.getInputInfo().values().iterator().next().getInfo();
+        dynamicBatch = inputInfo.getShape()[0] < 0;
 
         // 2. Load labels
         ClassPathResource labelsResource = new ClassPathResource("labels.txt");
@@ -47,47 +79,207 @@ public class ModelService {
         System.out.println("Labels loaded: " + labels);
     }
 
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmupEnabled) {
+            return;
+        }
+
+        // Run one dummy inference in the background so the first real request
+        // doesn't pay for ONNX Runtime's lazy kernel initialization
+        Thread warmupThread = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                runInference(new float[1][224][224][3]);
+                System.out.println("Model warm-up finished in " + (System.currentTimeMillis() - start) + " ms");
+            } catch (Exception e) {
+                System.out.println("Model warm-up failed: " + e.getMessage());
+            }
+        }, "model-warmup");
+        warmupThread.setDaemon(true);
+        warmupThread.start();
+    }
+
     public PredictionResponse predict(byte[] imageBytes) throws Exception {
-        // 1. Preprocess image
+        activePredictions.incrementAndGet();
+        try {
+            // 1. Preprocess image
+            float[][][] image = preprocess(imageBytes);
+
+            // 2. Run ONNX inference
+            float[] predictions = runInference(new float[][][][] { image })[0];
+
+            // 3. Find top prediction and create response
+            PredictionResponse response = toResponse(predictions);
+
+            if (firstPredictionLogged.compareAndSet(false, true)) {
+                long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+                System.out.println("Time to first prediction: " + sinceJvmStart + " ms since JVM start");
+            }
+
+            return response;
+        } finally {
+            activePredictions.decrementAndGet();
+        }
+    }
+
+    /**
+     * Classifies already preprocessed images, in a single run when the model has a
+     * dynamic batch dimension and one run per image otherwise.
+     */
+    public List<PredictionResponse> predictBatch(List<float[][][]> images) throws OrtException {
+        List<PredictionResponse> responses = new ArrayList<>(images.size());
+        if (images.isEmpty()) {
+            return responses;
+        }
+
+        if (dynamicBatch) {
+            for (float[] predictions : runInference(images.toArray(new float[0][][][]))) {
+                responses.add(toResponse(predictions));
+            }
+        } else {
+            for (float[][][] image : images) {
+                responses.add(toResponse(runInference(new float[][][][] { image })[0]));
+            }
+        }
+        return responses;
+    }
+
+    public float[][][] preprocess(byte[] imageBytes) throws IOException {
         BufferedImage originalImage = ImageIO.read(new ByteArrayInputStream(imageBytes));
-        float[][][][] tensor = preprocessImage(originalImage);
-
-        // 2. Run ONNX inference
-        OnnxTensor inputTensor = OnnxTensor.createTensor(env, tensor);
-        Map<String, OnnxTensor> inputs = Collections.singletonMap(
-            session.getInputNames().iterator().next(), 
-            inputTensor
-        );
-
-        try (OrtSession.Result results = session.run(inputs)) {
-            float[][] output = (float[][]) results.get(0).getValue();
-            float[] predictions = output[0];
-
-            // 3. Find top prediction
-            int maxIndex = 0;
-            float maxScore = predictions[0];
-            for (int i = 1; i < predictions.length; i++) {
-                if (predictions[i] > maxScore) {
-                    maxScore = predictions[i];
-                    maxIndex = i;
-                }
+        if (originalImage == null) {
+            throw new IOException("Unsupported image format");
+        }
+        return preprocessImage(originalImage);
+    }
+
+    /** SHA-256 of the loaded model file, identifies which model produced a prediction. */
+    public String getModelHash() {
+        return modelHash;
+    }
+
+    /** Number of live /api/predict requests currently being classified. */
+    public int getActivePredictions() {
+        return activePredictions.get();
+    }
+
+    private PredictionResponse toResponse(float[] predictions) {
+        int maxIndex = 0;
+        float maxScore = predictions[0];
+        for (int i = 1; i < predictions.length; i++) {
+            if (predictions[i] > maxScore) {
+                maxScore = predictions[i];
+                maxIndex = i;
             }
+        }
 
-            // 4. Create response
-            String predictedClass = labels.get(maxIndex);
-            double confidence = maxScore;
+        String predictedClass = labels.get(maxIndex);
+        double confidence = maxScore;
+
+        Map<String, Double> allScores = new LinkedHashMap<>();
+        for (int i = 0; i < labels.size(); i++) {
+            allScores.put(labels.get(i), (double) predictions[i]);
+        }
 
-            Map<String, Double> allScores = new LinkedHashMap<>();
-            for (int i = 0; i < labels.size(); i++) {
-                allScores.put(labels.get(i), (double) predictions[i]);
+        return new PredictionResponse(predictedClass, confidence, allScores);
+    }
+
+    private float[][] runInference(float[][][][] tensor) throws OrtException {
+        try (OnnxTensor inputTensor = OnnxTensor.createTensor(env, tensor)) {
+            Map<String, OnnxTensor> inputs = Collections.singletonMap(
+                session.getInputNames().iterator().next(), 
+                inputTensor
+            );
+
+            try (OrtSession.Result results = session.run(inputs)) {
+                return (float[][]) results.get(0).getValue();
             }
+        }
+    }
+
+    private OrtSession createSession(String path) throws OrtException, IOException {
+        if (optimizedCacheDir.isBlank()) {
+            return openSession(path, OrtSession.SessionOptions.OptLevel.ALL_OPT);
+        }
+
+        // The cache file is named after the source model's hash, so a new model never
+        // picks up a stale cache. It holds the EXTENDED_OPT graph, which stays portable;
+        // loading it with ALL_OPT only adds the hardware-specific layout passes.
+        Path cache = Paths.get(optimizedCacheDir, modelHash + ".opt.onnx");
+        if (Files.isRegularFile(cache)) {
+            try {
+                System.out.println("Using optimized model cache: " + cache);
+                return openSession(cache.toString(), OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            } catch (OrtException e) {
+                // Unreadable cache (e.g. truncated by a crash): rebuild it from the source model
+                System.out.println("Discarding unreadable model cache " + cache + ": " + e.getMessage());
+                Files.deleteIfExists(cache);
+            }
+        }
+
+        saveOptimizedModel(path, cache);
+        return openSession(cache.toString(), OrtSession.SessionOptions.OptLevel.ALL_OPT);
+    }
 
-            inputTensor.close();
-            return new PredictionResponse(predictedClass, confidence, allScores);
+    private void saveOptimizedModel(String path, Path cache) throws OrtException, IOException {
+        Files.createDirectories(cache.getParent());
+        // Write to a temp file first so a crash or another instance sharing the
+        // directory never leaves a partial cache under the final name
+        Path temp = Files.createTempFile(cache.getParent(), modelHash, ".tmp");
+        try {
+            try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+                options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.EXTENDED_OPT);
+                options.setOptimizedModelFilePath(temp.toString());
+                System.out.println("Saving optimized model cache to: " + cache);
+                env.createSession(path, options).close();
+            }
+            Files.move(temp, cache, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private OrtSession openSession(String path, OrtSession.SessionOptions.OptLevel optLevel) throws OrtException {
+        try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+            options.setOptimizationLevel(optLevel);
+            return env.createSession(path, options);
+        }
+    }
+
+    private String resolveModelPath() throws IOException {
+        if (!modelPath.isBlank()) {
+            return modelPath;
+        }
+
+        ClassPathResource modelResource = new ClassPathResource(MODEL_RESOURCE);
+        if (modelResource.isFile()) {
+            return modelResource.getFile().getAbsolutePath();
+        }
+
+        // Packaged inside the jar: stream it out to a temp file once (no heap copy)
+        Path extracted = Files.createTempFile("model-", ".onnx");
+        extracted.toFile().deleteOnExit();
+        try (InputStream modelStream = modelResource.getInputStream()) {
+            Files.copy(modelStream, extracted, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return extracted.toString();
+    }
+
+    private static String sha256(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
-    private float[][][][] preprocessImage(BufferedImage originalImage) {
+    private float[][][] preprocessImage(BufferedImage originalImage) {
         // 1. Resize to 224x224
         BufferedImage resizedImage = new BufferedImage(224, 224, BufferedImage.TYPE_INT_RGB);
         Graphics2D graphics = resizedImage.createGraphics();
@@ -96,16 +288,16 @@ public class ModelService {
         graphics.dispose();
         
         // 2. Convert to float tensor - keep pixels in 0-255 range
-        float[][][][] tensor = new float[1][224][224][3];
+        float[][][] tensor = new float[224][224][3];
         
         for (int y = 0; y < 224; y++) {
             for (int x = 0; x < 224; x++) {
                 int rgb = resizedImage.getRGB(x, y);
                 
                 // Extract RGB values (0-255) and keep as-is
-                tensor[0][y][x][0] = ((rgb >> 16) & 0xFF);  // R
-                tensor[0][y][x][1] = ((rgb >> 8) & 0xFF);   // G
-                tensor[0][y][x][2] = (rgb & 0xFF);          // B
+                tensor[y][x][0] = ((rgb >> 16) & 0xFF);  // R
+                tensor[y][x][1] = ((rgb >> 8) & 0xFF);   // G
+                tensor[y][x][2] = (rgb & 0xFF);          // B
             }
         }
         
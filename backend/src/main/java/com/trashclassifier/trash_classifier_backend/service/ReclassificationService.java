@@ -0,0 +1,296 @@
+package com.trashclassifier.trash_classifier_backend.service;
+
+import com.trashclassifier.trash_classifier_backend.entity.ReclassificationCheckpoint;
+import com.trashclassifier.trash_classifier_backend.model.PredictionResponse;
+import com.trashclassifier.trash_classifier_backend.repository.ReclassificationCheckpointRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background job that re-scores stored images with the current model.
+ * Rows are read in id order, decoded on a small thread pool, classified in batches
+ * and written back with JDBC batch updates. Progress is checkpointed after every
+ * batch so a stopped or crashed run resumes where it left off. The checkpoint
+ * belongs to one model: when the model changes the job starts over.
+ */
+@Service
+public class ReclassificationService {
+
+    private static final String JOB_NAME = "reclassification";
+    private static final long LIVE_TRAFFIC_BACKOFF_MS = 100;
+
+    @Value("${reclassify.batch-size:32}")
+    private int batchSize;
+
+    @Value("${reclassify.decode-threads:2}")
+    private int decodeThreads;
+
+    // Images per inference run; live traffic is checked before each run, so this
+    // bounds how long a /api/predict request can wait behind the job
+    @Value("${reclassify.inference-batch-size:4}")
+    private int inferenceBatchSize;
+
+    // Upper bound on re-scored images per second; 0 disables the limit
+    @Value("${reclassify.max-images-per-second:20}")
+    private double maxImagesPerSecond;
+
+    @Autowired
+    private ModelService modelService;
+
+    @Autowired
+    private ImageStoreService imageStoreService;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private ReclassificationCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean stopRequested = new AtomicBoolean();
+    private volatile String lastError;
+    private long nextBatchAt;
+
+    public boolean start(boolean restart) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        stopRequested.set(false);
+        lastError = null;
+
+        Thread jobThread = new Thread(() -> run(restart), "reclassify-job");
+        jobThread.setDaemon(true);
+        jobThread.start();
+        return true;
+    }
+
+    public void stop() {
+        stopRequested.set(true);
+    }
+
+    public Map<String, Object> getStatus() {
+        ReclassificationCheckpoint checkpoint = loadCheckpoint();
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("modelHash", modelService.getModelHash());
+        status.put("checkpointModelHash", checkpoint.getModelHash());
+        status.put("lastProcessedId", checkpoint.getLastProcessedId());
+        status.put("processed", checkpoint.getProcessed());
+        status.put("changed", checkpoint.getChanged());
+        status.put("skipped", checkpoint.getSkipped());
+        status.put("updatedAt", checkpoint.getUpdatedAt());
+        status.put("error", lastError);
+        return status;
+    }
+
+    private void run(boolean restart) {
+        System.out.println("Reclassification job started");
+        ExecutorService decodePool = Executors.newFixedThreadPool(decodeThreads, runnable -> {
+            Thread thread = new Thread(runnable, "reclassify-decode");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            String modelHash = modelService.getModelHash();
+            ReclassificationCheckpoint checkpoint = loadCheckpoint();
+            if (restart || !modelHash.equals(checkpoint.getModelHash())) {
+                // Saving a fresh checkpoint under the same job name replaces the old one
+                checkpoint = new ReclassificationCheckpoint(JOB_NAME, modelHash);
+                checkpointRepository.save(checkpoint);
+            }
+            nextBatchAt = System.currentTimeMillis();
+
+            List<StoredImage> page = fetchPage(checkpoint.getLastProcessedId(), modelHash);
+            List<Future<float[][][]>> decoded = submitDecodes(decodePool, page);
+
+            while (!page.isEmpty() && !stopRequested.get()) {
+                // Decode the next page while this one is being classified
+                List<StoredImage> nextPage = fetchPage(page.get(page.size() - 1).id, modelHash);
+                List<Future<float[][][]>> nextDecoded = submitDecodes(decodePool, nextPage);
+
+                throttle(page.size());
+                processBatch(checkpoint, modelHash, page, decoded);
+
+                page = nextPage;
+                decoded = nextDecoded;
+            }
+
+            System.out.println("Reclassification job " + (stopRequested.get() ? "stopped" : "finished")
+                    + " at id " + checkpoint.getLastProcessedId());
+        } catch (Exception e) {
+            e.printStackTrace();
+            lastError = e.getMessage();
+        } finally {
+            decodePool.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    private void processBatch(ReclassificationCheckpoint checkpoint, String modelHash, List<StoredImage> page,
+                              List<Future<float[][][]>> decoded) throws Exception {
+        List<StoredImage> rows = new ArrayList<>();
+        List<float[][][]> images = new ArrayList<>();
+        for (int i = 0; i < page.size(); i++) {
+            float[][][] image = decoded.get(i).get();
+            if (image != null) {
+                rows.add(page.get(i));
+                images.add(image);
+            }
+        }
+
+        List<PredictionResponse> results = new ArrayList<>(images.size());
+        for (int from = 0; from < images.size(); from += inferenceBatchSize) {
+            waitForLiveTraffic();
+            int to = Math.min(from + inferenceBatchSize, images.size());
+            results.addAll(modelService.predictBatch(images.subList(from, to)));
+        }
+
+        List<Object[]> classificationArgs = new ArrayList<>();
+        List<Object[]> scoreArgs = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            PredictionResponse result = results.get(i);
+            long id = rows.get(i).id;
+            classificationArgs.add(new Object[] { result.getPredictedClass(), result.getConfidence(), modelHash, id });
+            for (Map.Entry<String, Double> score : result.getAllScores().entrySet()) {
+                scoreArgs.add(new Object[] { score.getValue(), id, score.getKey() });
+            }
+        }
+
+        long skipped = page.size() - rows.size();
+        long lastId = page.get(page.size() - 1).id;
+
+        // Results and checkpoint commit together, so a resumed run never re-applies or loses a batch.
+        // The statistics lock keeps a concurrent history clear from interleaving with the counter updates.
+        statisticsService.underUpdateLock(() -> {
+            writeBatch(checkpoint, rows, results, classificationArgs, scoreArgs, skipped, lastId);
+            return null;
+        });
+    }
+
+    private void writeBatch(ReclassificationCheckpoint checkpoint, List<StoredImage> rows,
+                            List<PredictionResponse> results, List<Object[]> classificationArgs,
+                            List<Object[]> scoreArgs, long skipped, long lastId) {
+        List<Integer> changedRows = transactionTemplate.execute(status -> {
+            int[] updateCounts = jdbcTemplate.batchUpdate(
+                "UPDATE classifications SET predicted_class = ?, confidence = ?, model_version = ? WHERE id = ?",
+                classificationArgs
+            );
+            jdbcTemplate.batchUpdate(
+                "UPDATE classification_scores SET score = ? WHERE classification_id = ? AND class_name = ?",
+                scoreArgs
+            );
+
+            // Rows deleted while the job was running report 0 updates and are left out
+            List<Integer> changed = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                if (updateCounts[i] != 0 && !results.get(i).getPredictedClass().equals(rows.get(i).predictedClass)) {
+                    changed.add(i);
+                }
+            }
+
+            checkpoint.setLastProcessedId(lastId);
+            checkpoint.setProcessed(checkpoint.getProcessed() + rows.size());
+            checkpoint.setChanged(checkpoint.getChanged() + changed.size());
+            checkpoint.setSkipped(checkpoint.getSkipped() + skipped);
+            checkpointRepository.save(checkpoint);
+            return changed;
+        });
+
+        // Keep the in-memory statistics in line with the new predictions
+        for (int i : changedRows) {
+            StoredImage row = rows.get(i);
+            statisticsService.removeClassification(row.predictedClass, row.createdAt);
+            statisticsService.recordClassification(results.get(i).getPredictedClass(), row.createdAt);
+        }
+    }
+
+    private List<Future<float[][][]>> submitDecodes(ExecutorService decodePool, List<StoredImage> page) {
+        List<Future<float[][][]>> futures = new ArrayList<>(page.size());
+        for (StoredImage row : page) {
+            futures.add(decodePool.submit(() -> {
+                try {
+                    return modelService.preprocess(imageStoreService.load(row.imageHash));
+                } catch (Exception e) {
+                    System.out.println("Skipping classification " + row.id + ": " + e.getMessage());
+                    return null;
+                }
+            }));
+        }
+        return futures;
+    }
+
+    private void waitForLiveTraffic() throws InterruptedException {
+        // Live /api/predict requests always go first
+        while (modelService.getActivePredictions() > 0 && !stopRequested.get()) {
+            Thread.sleep(LIVE_TRAFFIC_BACKOFF_MS);
+        }
+    }
+
+    private void throttle(int images) throws InterruptedException {
+        if (maxImagesPerSecond > 0) {
+            long wait = nextBatchAt - System.currentTimeMillis();
+            if (wait > 0) {
+                Thread.sleep(wait);
+            }
+            nextBatchAt = Math.max(nextBatchAt, System.currentTimeMillis()) + (long) (images * 1000 / maxImagesPerSecond);
+        }
+    }
+
+    // Rows already scored by this model are skipped
+    private List<StoredImage> fetchPage(long afterId, String modelHash) {
+        return jdbcTemplate.query(
+            "SELECT id, image_hash, predicted_class, created_at FROM classifications " +
+            "WHERE id > ? AND image_hash IS NOT NULL " +
+            "AND (model_version IS NULL OR model_version <> ?) ORDER BY id LIMIT ?",
+            (rs, rowNum) -> {
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                return new StoredImage(
+                    rs.getLong("id"),
+                    rs.getString("image_hash"),
+                    rs.getString("predicted_class"),
+                    createdAt != null ? createdAt.toLocalDateTime() : null
+                );
+            },
+            afterId, modelHash, batchSize
+        );
+    }
+
+    private ReclassificationCheckpoint loadCheckpoint() {
+        return checkpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> new ReclassificationCheckpoint(JOB_NAME, null));
+    }
+
+    private static class StoredImage {
+        private final long id;
+        private final String imageHash;
+        private final String predictedClass;
+        private final LocalDateTime createdAt;
+
+        StoredImage(long id, String imageHash, String predictedClass, LocalDateTime createdAt) {
+            this.id = id;
+            this.imageHash = imageHash;
+            this.predictedClass = predictedClass;
+            this.createdAt = createdAt;
+        }
+    }
+}
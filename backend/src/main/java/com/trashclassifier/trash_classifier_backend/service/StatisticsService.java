@@ -0,0 +1,229 @@
+package com.trashclassifier.trash_classifier_backend.service;
+
+import com.trashclassifier.trash_classifier_backend.repository.ClassificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory classification counters, seeded from the database at startup and
+ * kept up to date by the controller, so statistics never hit Postgres.
+ * Changes are pushed to subscribed clients as server-sent events from a
+ * dedicated thread, so a slow client never blocks a request thread.
+ *
+ * Assumes a single backend instance: each instance only counts the writes it
+ * handled itself after startup, so behind a load balancer with several
+ * replicas every instance reports different, wrong totals.
+ */
+@Service
+public class StatisticsService {
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final int MAX_PENDING_EVENTS = 1000;
+
+    @Autowired
+    private ClassificationRepository classificationRepository;
+
+    private final LongAdder total = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> countByClass = new ConcurrentHashMap<>();
+    private final ConcurrentMap<LocalDate, ConcurrentMap<String, LongAdder>> countByDay = new ConcurrentHashMap<>();
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    // Database changes that move the counters hold the read lock, clearing the history
+    // holds the write lock, so a clear never interleaves with a save and its count
+    private final ReadWriteLock updateLock = new ReentrantReadWriteLock();
+
+    // If events back up (a client stopped reading), drop every subscriber instead of
+    // queueing without bound; clients reconnect and refetch the full statistics
+    private final ThreadPoolExecutor broadcaster = new ThreadPoolExecutor(
+        1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(MAX_PENDING_EVENTS),
+        runnable -> {
+            Thread thread = new Thread(runnable, "statistics-broadcast");
+            thread.setDaemon(true);
+            return thread;
+        },
+        (runnable, executor) -> disconnectAll()
+    );
+
+    @PostConstruct
+    public void loadCounters() {
+        System.out.println("Loading statistics counters...");
+        seed();
+        System.out.println("Statistics counters loaded: " + total.sum() + " classifications");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        broadcaster.shutdownNow();
+    }
+
+    /**
+     * Runs a database change together with the matching counter update, e.g. saving a
+     * classification and recording it. Any number of these can run at once.
+     */
+    public <T> T underUpdateLock(Callable<T> change) throws Exception {
+        updateLock.readLock().lock();
+        try {
+            return change.call();
+        } finally {
+            updateLock.readLock().unlock();
+        }
+    }
+
+    public void recordClassification(String predictedClass, LocalDateTime createdAt) {
+        update(predictedClass, createdAt, 1);
+    }
+
+    public void removeClassification(String predictedClass, LocalDateTime createdAt) {
+        update(predictedClass, createdAt, -1);
+    }
+
+    /**
+     * Runs the history delete with all other updates held off, then reloads the
+     * counters from the database so they can't drift from what is stored.
+     */
+    public void clear(Runnable deleteAll) {
+        updateLock.writeLock().lock();
+        try {
+            deleteAll.run();
+            total.reset();
+            countByClass.clear();
+            countByDay.clear();
+            seed();
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+        broadcast("reset", Collections.emptyMap());
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public Map<String, Long> getDistribution() {
+        return snapshot(countByClass);
+    }
+
+    public Map<String, Long> getDistribution(LocalDate from, LocalDate to) {
+        Map<String, Long> distribution = new TreeMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            ConcurrentMap<String, LongAdder> counters = countByDay.get(day);
+            if (counters != null) {
+                snapshot(counters).forEach((name, count) -> distribution.merge(name, count, Long::sum));
+            }
+        }
+        return distribution;
+    }
+
+    public long getCountOnDay(LocalDate day) {
+        ConcurrentMap<String, LongAdder> counters = countByDay.get(day);
+        if (counters == null) {
+            return 0;
+        }
+        long count = 0;
+        for (LongAdder adder : counters.values()) {
+            count += adder.sum();
+        }
+        return count;
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    private void seed() {
+        for (Object[] row : classificationRepository.countByDayAndPredictedClass()) {
+            LocalDate day = toLocalDate(row[0]);
+            String predictedClass = (String) row[1];
+            long count = ((Number) row[2]).longValue();
+            add(predictedClass, day, count);
+        }
+    }
+
+    private void update(String predictedClass, LocalDateTime createdAt, long delta) {
+        LocalDate day = createdAt != null ? createdAt.toLocalDate() : null;
+        add(predictedClass, day, delta);
+        broadcast("classification", delta(predictedClass, day, delta));
+    }
+
+    private void add(String predictedClass, LocalDate day, long count) {
+        total.add(count);
+        countByClass.computeIfAbsent(predictedClass, k -> new LongAdder()).add(count);
+        if (day != null) {
+            countByDay.computeIfAbsent(day, k -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(predictedClass, k -> new LongAdder()).add(count);
+        }
+    }
+
+    private void broadcast(String eventName, Object data) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        broadcaster.execute(() -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().name(eventName).data(data));
+                } catch (IOException | IllegalStateException e) {
+                    emitters.remove(emitter);
+                }
+            }
+        });
+    }
+
+    private void disconnectAll() {
+        System.out.println("Statistics events backed up, disconnecting " + emitters.size() + " subscribers");
+        for (SseEmitter emitter : emitters) {
+            emitters.remove(emitter);
+            emitter.complete();
+        }
+    }
+
+    private static Map<String, Object> delta(String predictedClass, LocalDate day, long delta) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("name", predictedClass);
+        event.put("date", day != null ? day.toString() : null);
+        event.put("delta", delta);
+        return event;
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((name, adder) -> {
+            long count = adder.sum();
+            if (count != 0) {
+                result.put(name, count);
+            }
+        });
+        return result;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        }
+        return LocalDate.parse(value.toString());
+    }
+}
@@ -0,0 +1,198 @@
+package com.trashclassifier.trash_classifier_backend.controller;
+
+import com.trashclassifier.trash_classifier_backend.entity.Classification;
+import com.trashclassifier.trash_classifier_backend.entity.ClassificationScore;
+import com.trashclassifier.trash_classifier_backend.repository.ClassificationRepository;
+import com.trashclassifier.trash_classifier_backend.service.ImageStoreService;
+import com.trashclassifier.trash_classifier_backend.service.ModelService;
+import com.trashclassifier.trash_classifier_backend.service.StatisticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Timeframe statistics and history deletes, run against H2 with the real
+ * StatisticsService and a mocked model.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false"
+})
+@Import({ PredictionController.class, StatisticsService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PredictionControllerTest {
+
+    @MockitoBean
+    private ModelService modelService;
+
+    @MockitoBean
+    private ImageStoreService imageStoreService;
+
+    @Autowired
+    private PredictionController predictionController;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private ClassificationRepository classificationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        statisticsService.clear(classificationRepository::deleteAll);
+        today = LocalDate.now();
+    }
+
+    @Test
+    void weekCoversTodayAndSixDaysBefore() {
+        insert("paper", today.minusDays(7).atTime(23, 59, 59));
+        insert("plastic", today.minusDays(6).atStartOfDay());
+        insert("glass", today.atTime(0, 0, 1));
+        statisticsService.clear(() -> { });
+
+        Map<String, Object> body = timeframe("week");
+
+        assertEquals(2L, body.get("totalClassifications"));
+        assertEquals(today.minusDays(6).atStartOfDay(), body.get("startDate"));
+        assertEquals(List.of(
+                Map.of("name", "glass", "count", 1L),
+                Map.of("name", "plastic", "count", 1L)), body.get("distribution"));
+
+        List<Map<String, Object>> trend = trend(body);
+        assertEquals(7, trend.size());
+        assertEquals(today.minusDays(6).toString(), trend.get(0).get("date"));
+        assertEquals(1L, trend.get(0).get("count"));
+        assertEquals(today.toString(), trend.get(6).get("date"));
+        assertEquals(1L, trend.get(6).get("count"));
+    }
+
+    @Test
+    void monthCoversTodayAndTwentyNineDaysBefore() {
+        insert("paper", today.minusDays(30).atTime(12, 0));
+        insert("metal", today.minusDays(29).atTime(12, 0));
+        insert("metal", today.minusDays(10).atTime(12, 0));
+        statisticsService.clear(() -> { });
+
+        Map<String, Object> body = timeframe("month");
+
+        assertEquals(2L, body.get("totalClassifications"));
+        assertEquals(today.minusDays(29).atStartOfDay(), body.get("startDate"));
+        List<Map<String, Object>> trend = trend(body);
+        assertEquals(30, trend.size());
+        assertEquals(today.minusDays(29).toString(), trend.get(0).get("date"));
+        assertEquals(1L, trend.get(0).get("count"));
+        assertEquals(1L, trend.get(19).get("count"));
+        assertEquals(2L, trend.stream().mapToLong(day -> (Long) day.get("count")).sum());
+    }
+
+    @Test
+    void allTimeTrendIsMonthly() {
+        LocalDate thisMonth = today.withDayOfMonth(1);
+        insert("paper", thisMonth.atStartOfDay());
+        insert("paper", thisMonth.minusMonths(1).atTime(8, 0));
+        insert("paper", thisMonth.minusDays(1).atTime(23, 0));
+        insert("glass", thisMonth.minusMonths(12).atTime(8, 0));
+        statisticsService.clear(() -> { });
+
+        Map<String, Object> body = timeframe("all");
+
+        assertEquals(4L, body.get("totalClassifications"));
+        List<Map<String, Object>> trend = trend(body);
+        assertEquals(12, trend.size());
+        assertEquals(thisMonth.minusMonths(11).toString(), trend.get(0).get("date"));
+        assertEquals(thisMonth.minusMonths(1).toString(), trend.get(10).get("date"));
+        assertEquals(2L, trend.get(10).get("count"));
+        assertEquals(thisMonth.toString(), trend.get(11).get("date"));
+        assertEquals(1L, trend.get(11).get("count"));
+    }
+
+    @Test
+    void overlappingDeletesOfSameRowCountItOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20; round++) {
+                Classification classification = new Classification("plastic", 0.9, "test.jpg");
+                classification.addScore(new ClassificationScore("plastic", 0.9));
+                classification.addScore(new ClassificationScore("paper", 0.1));
+                long id = classificationRepository.save(classification).getId();
+                statisticsService.recordClassification("plastic", classification.getCreatedAt());
+                statisticsService.recordClassification("paper", classification.getCreatedAt());
+
+                CountDownLatch go = new CountDownLatch(1);
+                List<Future<ResponseEntity<?>>> deletes = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    deletes.add(pool.submit(() -> {
+                        go.await();
+                        return predictionController.deleteClassification(id);
+                    }));
+                }
+                go.countDown();
+
+                int ok = 0;
+                int notFound = 0;
+                for (Future<ResponseEntity<?>> delete : deletes) {
+                    int status = delete.get().getStatusCode().value();
+                    ok += status == 200 ? 1 : 0;
+                    notFound += status == 404 ? 1 : 0;
+                }
+                assertEquals(1, ok);
+                assertEquals(1, notFound);
+                assertEquals(Map.of("paper", (long) round + 1), statisticsService.getDistribution());
+            }
+            assertEquals(0, classificationRepository.count());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void deletingMissingRowLeavesCountersAlone() {
+        statisticsService.recordClassification("plastic", today.atStartOfDay());
+
+        assertEquals(404, predictionController.deleteClassification(12345L).getStatusCode().value());
+        assertEquals(Map.of("plastic", 1L), statisticsService.getDistribution());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> timeframe(String timeframe) {
+        ResponseEntity<?> response = predictionController.getStatisticsByTimeframe(timeframe);
+        assertEquals(200, response.getStatusCode().value());
+        return (Map<String, Object>) response.getBody();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> trend(Map<String, Object> body) {
+        return (List<Map<String, Object>>) body.get("dailyTrend");
+    }
+
+    private void insert(String predictedClass, LocalDateTime createdAt) {
+        Classification classification = classificationRepository.save(new Classification(predictedClass, 0.9, "test.jpg"));
+        jdbcTemplate.update("UPDATE classifications SET created_at = ? WHERE id = ?",
+                Timestamp.valueOf(createdAt), classification.getId());
+    }
+}
@@ -0,0 +1,288 @@
+package com.trashclassifier.trash_classifier_backend.loadtest;
+
+import com.trashclassifier.trash_classifier_backend.entity.Classification;
+import com.trashclassifier.trash_classifier_backend.entity.ClassificationScore;
+import com.trashclassifier.trash_classifier_backend.repository.ClassificationRepository;
+import com.trashclassifier.trash_classifier_backend.service.StatisticsService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Closed-loop load test for the REST API. Boots the application on a random port
+ * against in-memory H2 and a synthetic ONNX model, drives a weighted mix of predict,
+ * history and statistics requests, writes a latency/throughput report to
+ * target/loadtest and fails when results regress past the stored baseline.
+ * The history is reset to a fixed number of rows before the measured phase and
+ * rows added by predict traffic are trimmed while it runs, so /api/history
+ * serves the same amount of data from the first request to the last.
+ *
+ * Excluded from the normal build, run with: ./mvnw -Ploadtest test
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class ApiLoadTest {
+
+    private static final String BOUNDARY = "loadtest-boundary";
+    private static final String[] CLASSES = { "cardboard", "glass", "metal", "paper", "plastic" };
+    private static final long TRIM_INTERVAL_MS = 250;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ClassificationRepository classificationRepository;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @DynamicPropertySource
+    static void syntheticModel(DynamicPropertyRegistry registry) throws IOException {
+        Path model = Files.createTempFile("synthetic-model-", ".onnx");
+        model.toFile().deleteOnExit();
+        SyntheticOnnxModel.write(model);
+        registry.add("model.path", model::toString);
+    }
+
+    @Test
+    void apiMeetsBaseline() throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 8);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 10);
+        int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 30);
+        int historyRows = Integer.getInteger("loadtest.history-rows", 200);
+        Map<String, Integer> mix = parseMix(System.getProperty("loadtest.mix", "predict=40,history=20,statistics=40"));
+        double tolerance = Double.parseDouble(System.getProperty("loadtest.tolerance", "0.5"));
+        double tailTolerance = Double.parseDouble(System.getProperty("loadtest.tail-tolerance", "0.5"));
+        Path baselineFile = Paths.get(System.getProperty("loadtest.baseline", "src/test/resources/loadtest-baseline.properties"));
+        Path reportDir = Paths.get(System.getProperty("loadtest.report-dir", "target/loadtest"));
+
+        List<byte[]> images = syntheticImages();
+
+        // Warm-up results are thrown away
+        runPhase(clients, warmupSeconds, mix, images, new LoadReport());
+
+        long lastSeededId = seedHistory(historyRows);
+        ScheduledExecutorService trimmer = Executors.newSingleThreadScheduledExecutor();
+        trimmer.scheduleWithFixedDelay(() -> trimHistory(lastSeededId),
+                TRIM_INTERVAL_MS, TRIM_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        LoadReport report = new LoadReport();
+        try {
+            runPhase(clients, durationSeconds, mix, images, report);
+        } finally {
+            trimmer.shutdownNow();
+        }
+        report.write(reportDir);
+
+        System.out.println("Load test: " + clients + " clients, " + durationSeconds + " s, mix " + mix
+                + ", " + historyRows + " history rows");
+        System.out.print(report.toTable());
+        System.out.println("History rows after run: " + classificationRepository.count());
+
+        if (Boolean.getBoolean("loadtest.update-baseline")) {
+            LoadReport.store(report.toBaseline(), baselineFile, "Load test baseline");
+            System.out.println("Baseline updated: " + baselineFile);
+            return;
+        }
+
+        List<String> regressions = report.regressionsAgainst(LoadReport.load(baselineFile), tolerance, tailTolerance);
+        assertTrue(regressions.isEmpty(), "Load test regressed against " + baselineFile + ":\n"
+                + String.join("\n", regressions));
+    }
+
+    private void runPhase(int clients, int seconds, Map<String, Integer> mix, List<byte[]> images,
+                          LoadReport report) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+
+        for (int i = 0; i < clients; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < end) {
+                    String endpoint = pickEndpoint(mix);
+                    HttpRequest request = buildRequest(endpoint, images);
+
+                    long sent = System.nanoTime();
+                    boolean success;
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        success = response.statusCode() / 100 == 2;
+                    } catch (IOException e) {
+                        success = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    report.record(endpoint, System.nanoTime() - sent, success);
+                }
+            });
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        report.setDurationNanos(System.nanoTime() - start);
+    }
+
+    /** Replaces the history with a fixed set of rows and returns the highest seeded id. */
+    private long seedHistory(int rows) {
+        List<Classification> seed = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < rows; i++) {
+            String predictedClass = CLASSES[i % CLASSES.length];
+            Classification classification = new Classification(predictedClass, 0.9, "seed-" + i + ".png");
+            for (String className : CLASSES) {
+                double score = className.equals(predictedClass) ? 0.9 : random.nextDouble() * 0.1;
+                classification.addScore(new ClassificationScore(className, score));
+            }
+            seed.add(classification);
+        }
+
+        // Through StatisticsService so the in-memory counters are reloaded to match
+        statisticsService.clear(() -> {
+            classificationRepository.deleteAll();
+            classificationRepository.saveAll(seed);
+        });
+        return seed.stream().mapToLong(Classification::getId).max().orElse(0);
+    }
+
+    /** Deletes rows created by predict traffic since the seed, keeping the counters in step. */
+    private void trimHistory(long lastSeededId) {
+        try {
+            statisticsService.underUpdateLock(() -> {
+                List<Object[]> added = jdbcTemplate.query(
+                        "SELECT id, predicted_class, created_at FROM classifications WHERE id > ? ORDER BY id",
+                        (rs, rowNum) -> new Object[] { rs.getLong("id"), rs.getString("predicted_class"),
+                                rs.getTimestamp("created_at") },
+                        lastSeededId);
+                if (added.isEmpty()) {
+                    return null;
+                }
+                // Bounded by the last row read, rows saved meanwhile go in the next pass
+                long lastId = (Long) added.get(added.size() - 1)[0];
+                jdbcTemplate.update("DELETE FROM classification_scores WHERE classification_id > ? AND classification_id <= ?",
+                        lastSeededId, lastId);
+                jdbcTemplate.update("DELETE FROM classifications WHERE id > ? AND id <= ?", lastSeededId, lastId);
+                for (Object[] row : added) {
+                    Timestamp createdAt = (Timestamp) row[2];
+                    statisticsService.removeClassification((String) row[1],
+                            createdAt != null ? createdAt.toLocalDateTime() : null);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private HttpRequest buildRequest(String endpoint, List<byte[]> images) {
+        String base = "http://localhost:" + port + "/api";
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(Duration.ofSeconds(30));
+
+        switch (endpoint) {
+            case "predict":
+                byte[] image = images.get(ThreadLocalRandom.current().nextInt(images.size()));
+                return builder.uri(URI.create(base + "/predict"))
+                        .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(multipartBody(image)))
+                        .build();
+            case "history":
+                return builder.uri(URI.create(base + "/history")).GET().build();
+            case "statistics":
+                return builder.uri(URI.create(base + "/statistics/timeframe?timeframe=all")).GET().build();
+            default:
+                throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+        }
+    }
+
+    private static String pickEndpoint(Map<String, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty traffic mix");
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(pair[0].trim(), weight);
+            }
+        }
+        return weights;
+    }
+
+    private static byte[] multipartBody(byte[] image) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"image\"; filename=\"loadtest.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(image);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    // A few camera-sized PNGs with different colours so predictions vary
+    private static List<byte[]> syntheticImages() throws IOException {
+        List<byte[]> images = new ArrayList<>();
+        Random random = new Random(42);
+        for (int n = 0; n < 4; n++) {
+            BufferedImage image = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+            int tint = random.nextInt(0xFFFFFF);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    int noise = random.nextInt(32);
+                    image.setRGB(x, y, (tint + ((x / 4) << 16) + ((y / 4) << 8) + noise) & 0xFFFFFF);
+                }
+            }
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", png);
+            images.add(png.toByteArray());
+        }
+        return images;
+    }
+}
@@ -0,0 +1,183 @@
+package com.trashclassifier.trash_classifier_backend.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects request latencies per endpoint and turns them into percentiles,
+ * throughput and error rates. Results are written as a readable table and as
+ * properties in the same format as the stored baseline.
+ */
+final class LoadReport {
+
+    static final String OVERALL = "overall";
+
+    private final Map<String, Queue<Long>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private long durationNanos;
+
+    void record(String endpoint, long latencyNanos, boolean success) {
+        latencies.computeIfAbsent(endpoint, k -> new ConcurrentLinkedQueue<>()).add(latencyNanos);
+        if (!success) {
+            errors.computeIfAbsent(endpoint, k -> new LongAdder()).increment();
+        }
+    }
+
+    void setDurationNanos(long durationNanos) {
+        this.durationNanos = durationNanos;
+    }
+
+    /** Metrics keyed "<endpoint>.<metric>", e.g. "predict.p99-ms". */
+    Properties toProperties() {
+        Properties properties = new Properties();
+        List<Long> all = new ArrayList<>();
+        long allErrors = 0;
+
+        for (Map.Entry<String, Queue<Long>> entry : new TreeMap<>(latencies).entrySet()) {
+            List<Long> endpointLatencies = new ArrayList<>(entry.getValue());
+            long endpointErrors = errorCount(entry.getKey());
+            putMetrics(properties, entry.getKey(), endpointLatencies, endpointErrors);
+            all.addAll(endpointLatencies);
+            allErrors += endpointErrors;
+        }
+        putMetrics(properties, OVERALL, all, allErrors);
+        return properties;
+    }
+
+    /**
+     * The subset of metrics that the regression gate compares. The tail is gated on
+     * p90: with a few hundred requests per endpoint p99 rests on two or three samples.
+     * Overall latency percentiles are left out: they blend fast and slow endpoints
+     * and move with the random request mix rather than with the code.
+     */
+    Properties toBaseline() {
+        Properties baseline = new Properties();
+        toProperties().forEach((key, value) -> {
+            String name = (String) key;
+            boolean latency = name.endsWith(".p50-ms") || name.endsWith(".p90-ms");
+            if ((latency && !name.startsWith(OVERALL + "."))
+                    || name.endsWith(".throughput-rps") || name.endsWith(".error-rate")) {
+                baseline.put(name, value);
+            }
+        });
+        return baseline;
+    }
+
+    /**
+     * Returns one message per metric that is worse than the baseline by more than the
+     * tolerance. Tail latencies (p90 and above) use the separate, wider tail tolerance.
+     */
+    List<String> regressionsAgainst(Properties baseline, double tolerance, double tailTolerance) {
+        Properties measured = toProperties();
+        List<String> regressions = new ArrayList<>();
+
+        for (String key : new TreeSet<>(baseline.stringPropertyNames())) {
+            double expected = Double.parseDouble(baseline.getProperty(key));
+            String value = measured.getProperty(key);
+            if (value == null) {
+                regressions.add(key + ": no requests recorded");
+                continue;
+            }
+            double actual = Double.parseDouble(value);
+
+            boolean regressed;
+            if (key.endsWith(".p90-ms") || key.endsWith(".p99-ms")) {
+                regressed = actual > expected * (1 + tailTolerance);
+            } else if (key.endsWith("-ms")) {
+                regressed = actual > expected * (1 + tolerance);
+            } else if (key.endsWith("-rps")) {
+                regressed = actual < expected * (1 - tolerance);
+            } else {
+                // Error rates are compared absolutely, a zero baseline allows no errors
+                regressed = actual > expected;
+            }
+
+            if (regressed) {
+                regressions.add(String.format(Locale.ROOT, "%s: %.2f (baseline %.2f)", key, actual, expected));
+            }
+        }
+        return regressions;
+    }
+
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        store(toProperties(), directory.resolve("report.properties"), "Load test results");
+        Files.writeString(directory.resolve("report.txt"), toTable());
+    }
+
+    String toTable() {
+        Properties properties = toProperties();
+        List<String> endpoints = new ArrayList<>(new TreeSet<>(latencies.keySet()));
+        endpoints.add(OVERALL);
+
+        StringBuilder table = new StringBuilder();
+        table.append(String.format(Locale.ROOT, "%-12s %9s %8s %9s %9s %9s %9s %10s%n",
+                "endpoint", "requests", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms", "req/s"));
+        for (String endpoint : endpoints) {
+            table.append(String.format(Locale.ROOT, "%-12s %9s %8s %9s %9s %9s %9s %10s%n",
+                    endpoint,
+                    properties.getProperty(endpoint + ".requests"),
+                    properties.getProperty(endpoint + ".errors"),
+                    properties.getProperty(endpoint + ".p50-ms"),
+                    properties.getProperty(endpoint + ".p90-ms"),
+                    properties.getProperty(endpoint + ".p99-ms"),
+                    properties.getProperty(endpoint + ".max-ms"),
+                    properties.getProperty(endpoint + ".throughput-rps")));
+        }
+        return table.toString();
+    }
+
+    static Properties load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    static void store(Properties properties, Path file, String comment) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            properties.store(writer, comment);
+        }
+    }
+
+    private void putMetrics(Properties properties, String endpoint, List<Long> latencyNanos, long errorCount) {
+        List<Long> sorted = new ArrayList<>(latencyNanos);
+        Collections.sort(sorted);
+        double seconds = durationNanos / 1e9;
+
+        properties.setProperty(endpoint + ".requests", Long.toString(sorted.size()));
+        properties.setProperty(endpoint + ".errors", Long.toString(errorCount));
+        properties.setProperty(endpoint + ".error-rate", format(sorted.isEmpty() ? 0 : (double) errorCount / sorted.size()));
+        properties.setProperty(endpoint + ".p50-ms", format(percentileMillis(sorted, 0.50)));
+        properties.setProperty(endpoint + ".p90-ms", format(percentileMillis(sorted, 0.90)));
+        properties.setProperty(endpoint + ".p99-ms", format(percentileMillis(sorted, 0.99)));
+        properties.setProperty(endpoint + ".max-ms", format(percentileMillis(sorted, 1.0)));
+        properties.setProperty(endpoint + ".throughput-rps", format(seconds > 0 ? sorted.size() / seconds : 0));
+    }
+
+    private long errorCount(String endpoint) {
+        LongAdder count = errors.get(endpoint);
+        return count != null ? count.sum() : 0;
+    }
+
+    // Nearest-rank percentile
+    private static double percentileMillis(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.size());
+        return sorted.get(Math.max(rank, 1) - 1) / 1e6;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
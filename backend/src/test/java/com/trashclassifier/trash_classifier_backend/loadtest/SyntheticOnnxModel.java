@@ -0,0 +1,131 @@
+package com.trashclassifier.trash_classifier_backend.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a tiny ONNX model with the same interface as the real classifier:
+ * input [batch, 224, 224, 3] float, output [batch, 5] softmax scores.
+ * The graph is ReduceMean over the pixels, a 3x5 MatMul and a Softmax, so inference
+ * is cheap and the load test measures the API rather than the network.
+ * The protobuf is encoded by hand to avoid pulling in an ONNX dependency.
+ */
+public final class SyntheticOnnxModel {
+
+    private static final int NUM_CLASSES = 5;
+
+    // onnx.proto enum values
+    private static final int FLOAT = 1;
+    private static final int ATTRIBUTE_INT = 2;
+    private static final int ATTRIBUTE_INTS = 7;
+
+    private SyntheticOnnxModel() {
+    }
+
+    public static Path write(Path target) throws IOException {
+        Files.write(target, build());
+        return target;
+    }
+
+    public static byte[] build() {
+        Proto reduceMean = new Proto()
+                .string(1, "input")
+                .string(2, "mean")
+                .string(4, "ReduceMean")
+                .message(5, new Proto().string(1, "axes").int64(8, 1).int64(8, 2).int64(20, ATTRIBUTE_INTS))
+                .message(5, new Proto().string(1, "keepdims").int64(3, 0).int64(20, ATTRIBUTE_INT));
+
+        Proto matMul = new Proto()
+                .string(1, "mean")
+                .string(1, "weights")
+                .string(2, "logits")
+                .string(4, "MatMul");
+
+        Proto softmax = new Proto()
+                .string(1, "logits")
+                .string(2, "output")
+                .string(4, "Softmax");
+
+        float[] weights = new float[3 * NUM_CLASSES];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = ((i * 7) % 11 - 5) / 255f;
+        }
+        ByteBuffer raw = ByteBuffer.allocate(weights.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (float weight : weights) {
+            raw.putFloat(weight);
+        }
+        Proto weightsTensor = new Proto()
+                .int64(1, 3)
+                .int64(1, NUM_CLASSES)
+                .int64(2, FLOAT)
+                .string(8, "weights")
+                .bytes(9, raw.array());
+
+        Proto graph = new Proto()
+                .message(1, reduceMean)
+                .message(1, matMul)
+                .message(1, softmax)
+                .string(2, "synthetic_classifier")
+                .message(5, weightsTensor)
+                .message(11, valueInfo("input", 224, 224, 3))
+                .message(12, valueInfo("output", NUM_CLASSES));
+
+        return new Proto()
+                .int64(1, 8)                                   // ir_version
+                .message(7, graph)
+                .message(8, new Proto().string(1, "").int64(2, 13)) // opset_import
+                .toByteArray();
+    }
+
+    private static Proto valueInfo(String name, long... dims) {
+        Proto shape = new Proto().message(1, new Proto().string(2, "batch"));
+        for (long dim : dims) {
+            shape.message(1, new Proto().int64(1, dim));
+        }
+        Proto tensorType = new Proto().int64(1, FLOAT).message(2, shape);
+        return new Proto().string(1, name).message(2, new Proto().message(1, tensorType));
+    }
+
+    /** Minimal protobuf writer: varint and length-delimited fields only. */
+    private static final class Proto {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Proto int64(int field, long value) {
+            varint((long) field << 3);
+            varint(value);
+            return this;
+        }
+
+        Proto string(int field, String value) {
+            return bytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Proto message(int field, Proto value) {
+            return bytes(field, value.toByteArray());
+        }
+
+        Proto bytes(int field, byte[] value) {
+            varint(((long) field << 3) | 2);
+            varint(value.length);
+            out.writeBytes(value);
+            return this;
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+
+        private void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.trashclassifier.trash_classifier_backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageStoreServiceTest {
+
+    // SHA-256 of "hello"
+    private static final String HELLO_HASH = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    @TempDir
+    Path storeDir;
+
+    private ImageStoreService imageStoreService;
+
+    @BeforeEach
+    void setUp() {
+        imageStoreService = new ImageStoreService();
+        ReflectionTestUtils.setField(imageStoreService, "storePath", storeDir.toString());
+    }
+
+    @Test
+    void storesImageUnderItsHash() throws Exception {
+        byte[] image = "hello".getBytes(StandardCharsets.UTF_8);
+
+        String hash = imageStoreService.store(image);
+
+        assertEquals(HELLO_HASH, hash);
+        assertTrue(Files.exists(storeDir.resolve("2c").resolve(HELLO_HASH)));
+        assertTrue(imageStoreService.exists(hash));
+        assertArrayEquals(image, imageStoreService.load(hash));
+    }
+
+    @Test
+    void duplicateUploadsShareOneFile() throws Exception {
+        String first = imageStoreService.store("hello".getBytes(StandardCharsets.UTF_8));
+        String second = imageStoreService.store("hello".getBytes(StandardCharsets.UTF_8));
+        String other = imageStoreService.store("world".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        assertEquals(2, storedFiles().size());
+    }
+
+    @Test
+    void leavesNoTempFilesBehind() throws Exception {
+        imageStoreService.store("hello".getBytes(StandardCharsets.UTF_8));
+        imageStoreService.store("hello".getBytes(StandardCharsets.UTF_8));
+
+        List<Path> files = storedFiles();
+        assertEquals(1, files.size());
+        assertEquals(HELLO_HASH, files.get(0).getFileName().toString());
+    }
+
+    @Test
+    void rejectsInvalidHashes() {
+        assertThrows(IllegalArgumentException.class, () -> imageStoreService.load("../../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> imageStoreService.load(HELLO_HASH.toUpperCase()));
+        assertThrows(IllegalArgumentException.class, () -> imageStoreService.exists(HELLO_HASH.substring(1)));
+        assertThrows(IllegalArgumentException.class, () -> imageStoreService.exists(HELLO_HASH + "0"));
+    }
+
+    @Test
+    void missingImageIsReported() {
+        assertFalse(imageStoreService.exists(HELLO_HASH));
+        assertThrows(java.nio.file.NoSuchFileException.class, () -> imageStoreService.load(HELLO_HASH));
+    }
+
+    private List<Path> storedFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(storeDir)) {
+            return files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.trashclassifier.trash_classifier_backend.service;
+
+import com.trashclassifier.trash_classifier_backend.loadtest.SyntheticOnnxModel;
+import com.trashclassifier.trash_classifier_backend.model.PredictionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Optimized-model cache handling, using the small generated model from the load test.
+ */
+class ModelServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path model;
+    private Path cacheDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        model = SyntheticOnnxModel.write(tempDir.resolve("model.onnx"));
+        cacheDir = tempDir.resolve("cache");
+    }
+
+    @Test
+    void savesCacheUnderModelHash() throws Exception {
+        ModelService modelService = loadModel(cacheDir.toString());
+
+        Path cache = cacheDir.resolve(modelService.getModelHash() + ".opt.onnx");
+        assertTrue(Files.size(cache) > 0);
+        assertEquals(List.of(cache), cacheFiles());
+    }
+
+    @Test
+    void cachedModelGivesSamePredictions() throws Exception {
+        ModelService uncached = loadModel("");
+        loadModel(cacheDir.toString());
+        ModelService cached = loadModel(cacheDir.toString());
+
+        PredictionResponse expected = classify(uncached);
+        PredictionResponse actual = classify(cached);
+        assertEquals(expected.getPredictedClass(), actual.getPredictedClass());
+        expected.getAllScores().forEach((name, score) -> assertEquals(score, actual.getAllScores().get(name), 1e-6));
+    }
+
+    @Test
+    void rebuildsTruncatedCache() throws Exception {
+        ModelService first = loadModel(cacheDir.toString());
+        Path cache = cacheDir.resolve(first.getModelHash() + ".opt.onnx");
+        byte[] complete = Files.readAllBytes(cache);
+
+        // As left behind by a process killed while writing
+        Files.write(cache, new byte[] { 8, 8, 18 });
+
+        ModelService second = loadModel(cacheDir.toString());
+
+        assertNotNull(classify(second));
+        assertArrayEquals(complete, Files.readAllBytes(cache));
+        assertEquals(List.of(cache), cacheFiles());
+    }
+
+    private ModelService loadModel(String optimizedCacheDir) throws Exception {
+        ModelService modelService = new ModelService();
+        ReflectionTestUtils.setField(modelService, "modelPath", model.toString());
+        ReflectionTestUtils.setField(modelService, "optimizedCacheDir", optimizedCacheDir);
+        ReflectionTestUtils.setField(modelService, "warmupEnabled", false);
+        modelService.loadModel();
+        return modelService;
+    }
+
+    private static PredictionResponse classify(ModelService modelService) throws Exception {
+        float[][][] image = new float[224][224][3];
+        for (int y = 0; y < 224; y++) {
+            for (int x = 0; x < 224; x++) {
+                image[y][x][0] = x;
+                image[y][x][1] = y;
+                image[y][x][2] = 128;
+            }
+        }
+        return modelService.predictBatch(List.<float[][][]>of(image)).get(0);
+    }
+
+    private List<Path> cacheFiles() throws Exception {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.trashclassifier.trash_classifier_backend.service;
+
+import com.trashclassifier.trash_classifier_backend.entity.Classification;
+import com.trashclassifier.trash_classifier_backend.model.PredictionResponse;
+import com.trashclassifier.trash_classifier_backend.repository.ClassificationRepository;
+import com.trashclassifier.trash_classifier_backend.repository.ReclassificationCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the reclassification job against in-memory H2 with a mocked model,
+ * covering checkpoint/resume after a failure and the reset on a model change.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false",
+    "reclassify.batch-size=2",
+    "reclassify.inference-batch-size=2",
+    "reclassify.decode-threads=1",
+    "reclassify.max-images-per-second=0"
+})
+@Import({ ReclassificationService.class, StatisticsService.class, ImageStoreService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReclassificationServiceTest {
+
+    private static final int ROWS = 5;
+
+    @TempDir
+    static Path storeDir;
+
+    @DynamicPropertySource
+    static void imageStore(DynamicPropertyRegistry registry) {
+        registry.add("image-store.path", storeDir::toString);
+    }
+
+    @MockitoBean
+    private ModelService modelService;
+
+    @Autowired
+    private ReclassificationService reclassificationService;
+
+    @Autowired
+    private ImageStoreService imageStoreService;
+
+    @Autowired
+    private ClassificationRepository classificationRepository;
+
+    @Autowired
+    private ReclassificationCheckpointRepository checkpointRepository;
+
+    private final AtomicInteger classifiedImages = new AtomicInteger();
+    private final AtomicInteger failingCall = new AtomicInteger(-1);
+    private final AtomicInteger predictCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 0; i < ROWS; i++) {
+            Classification classification = new Classification("plastic", 0.5, "image" + i + ".jpg");
+            classification.setImageHash(imageStoreService.store(("image " + i).getBytes(StandardCharsets.UTF_8)));
+            classification.setModelVersion("old-model");
+            classificationRepository.save(classification);
+        }
+
+        when(modelService.getModelHash()).thenReturn("model-a");
+        when(modelService.preprocess(any())).thenReturn(new float[1][1][3]);
+        when(modelService.predictBatch(anyList())).thenAnswer(invocation -> {
+            if (predictCalls.getAndIncrement() == failingCall.get()) {
+                throw new IllegalStateException("inference failed");
+            }
+            List<?> images = invocation.getArgument(0);
+            classifiedImages.addAndGet(images.size());
+            List<PredictionResponse> results = new ArrayList<>();
+            for (int i = 0; i < images.size(); i++) {
+                results.add(new PredictionResponse("paper", 0.9, Map.of("paper", 0.9, "plastic", 0.1)));
+            }
+            return results;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        classificationRepository.deleteAll();
+        checkpointRepository.deleteAll();
+    }
+
+    @Test
+    void resumesFromCheckpointAfterFailure() throws Exception {
+        // Second inference run fails: the first batch of two rows is committed, the second is not
+        failingCall.set(1);
+        Map<String, Object> status = runJob(false);
+
+        assertEquals("inference failed", status.get("error"));
+        assertEquals(2L, status.get("processed"));
+        assertEquals(ids().get(1), status.get("lastProcessedId"));
+        assertEquals(2, classifiedImages.get());
+
+        failingCall.set(-1);
+        status = runJob(false);
+
+        assertNull(status.get("error"));
+        assertEquals((long) ROWS, status.get("processed"));
+        assertEquals((long) ROWS, status.get("changed"));
+        assertEquals(ids().get(ROWS - 1), status.get("lastProcessedId"));
+        // Rows committed before the failure are not classified again
+        assertEquals(ROWS, classifiedImages.get());
+
+        for (Classification classification : classificationRepository.findAll()) {
+            assertEquals("paper", classification.getPredictedClass());
+            assertEquals("model-a", classification.getModelVersion());
+        }
+    }
+
+    @Test
+    void startsOverWhenModelChanges() throws Exception {
+        runJob(false);
+        assertEquals(ROWS, classifiedImages.get());
+
+        // Same model: nothing left to do
+        Map<String, Object> status = runJob(false);
+        assertEquals((long) ROWS, status.get("processed"));
+        assertEquals(ROWS, classifiedImages.get());
+
+        when(modelService.getModelHash()).thenReturn("model-b");
+        status = runJob(false);
+
+        assertEquals("model-b", status.get("checkpointModelHash"));
+        assertEquals((long) ROWS, status.get("processed"));
+        assertEquals(0L, status.get("changed"));
+        assertEquals(2 * ROWS, classifiedImages.get());
+        for (Classification classification : classificationRepository.findAll()) {
+            assertEquals("model-b", classification.getModelVersion());
+        }
+    }
+
+    @Test
+    void restartSkipsRowsAlreadyScoredByCurrentModel() throws Exception {
+        runJob(false);
+
+        Map<String, Object> status = runJob(true);
+
+        assertEquals("model-a", status.get("checkpointModelHash"));
+        assertEquals(0L, status.get("processed"));
+        assertEquals(0L, status.get("lastProcessedId"));
+        assertEquals(ROWS, classifiedImages.get());
+    }
+
+    private Map<String, Object> runJob(boolean restart) throws InterruptedException {
+        assertTrue(reclassificationService.start(restart));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (Boolean.TRUE.equals(reclassificationService.getStatus().get("running"))) {
+            assertTrue(System.currentTimeMillis() < deadline, "Reclassification job did not finish");
+            Thread.sleep(20);
+        }
+        return reclassificationService.getStatus();
+    }
+
+    private List<Long> ids() {
+        List<Long> ids = new ArrayList<>();
+        classificationRepository.findAll().forEach(classification -> ids.add(classification.getId()));
+        Collections.sort(ids);
+        return ids;
+    }
+}
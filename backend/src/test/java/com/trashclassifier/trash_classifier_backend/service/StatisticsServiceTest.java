@@ -0,0 +1,147 @@
+package com.trashclassifier.trash_classifier_backend.service;
+
+import com.trashclassifier.trash_classifier_backend.entity.Classification;
+import com.trashclassifier.trash_classifier_backend.repository.ClassificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the in-memory counters against H2: seeding, updates, clear and the
+ * day-range queries the timeframe statistics are built from.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false"
+})
+@Import(StatisticsService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StatisticsServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private ClassificationRepository classificationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        statisticsService.clear(classificationRepository::deleteAll);
+    }
+
+    @Test
+    void seedsCountersFromDatabase() {
+        insert("plastic", DAY.atTime(9, 0));
+        insert("plastic", DAY.atTime(23, 59, 59));
+        insert("paper", DAY.plusDays(1).atStartOfDay());
+
+        statisticsService.loadCounters();
+
+        assertEquals(3, statisticsService.getTotal());
+        assertEquals(Map.of("paper", 1L, "plastic", 2L), statisticsService.getDistribution());
+        assertEquals(2, statisticsService.getCountOnDay(DAY));
+        assertEquals(1, statisticsService.getCountOnDay(DAY.plusDays(1)));
+        assertEquals(0, statisticsService.getCountOnDay(DAY.minusDays(1)));
+    }
+
+    @Test
+    void removingLastClassificationDropsClass() {
+        statisticsService.recordClassification("glass", DAY.atTime(10, 0));
+        statisticsService.recordClassification("glass", DAY.atTime(11, 0));
+        statisticsService.recordClassification("metal", DAY.atTime(12, 0));
+
+        statisticsService.removeClassification("glass", DAY.atTime(10, 0));
+        assertEquals(Map.of("glass", 1L, "metal", 1L), statisticsService.getDistribution());
+
+        statisticsService.removeClassification("glass", DAY.atTime(11, 0));
+        assertEquals(1, statisticsService.getTotal());
+        assertEquals(Map.of("metal", 1L), statisticsService.getDistribution());
+        assertEquals(Map.of("metal", 1L), statisticsService.getDistribution(DAY, DAY));
+        assertEquals(1, statisticsService.getCountOnDay(DAY));
+    }
+
+    @Test
+    void clearReloadsCountersFromDatabase() {
+        // Counters that drifted from the table are replaced by what the table holds
+        statisticsService.recordClassification("cardboard", DAY.atTime(8, 0));
+        insert("paper", DAY.atTime(9, 0));
+        insert("paper", DAY.atTime(10, 0));
+
+        statisticsService.clear(() -> { });
+
+        assertEquals(2, statisticsService.getTotal());
+        assertEquals(Map.of("paper", 2L), statisticsService.getDistribution());
+
+        statisticsService.clear(classificationRepository::deleteAll);
+
+        assertEquals(0, statisticsService.getTotal());
+        assertTrue(statisticsService.getDistribution().isEmpty());
+        assertEquals(0, statisticsService.getCountOnDay(DAY));
+    }
+
+    @Test
+    void distributionRangeIncludesBothEndDays() {
+        LocalDate from = DAY;
+        LocalDate to = DAY.plusDays(6);
+        statisticsService.recordClassification("paper", from.minusDays(1).atTime(23, 59, 59));
+        statisticsService.recordClassification("plastic", from.atStartOfDay());
+        statisticsService.recordClassification("glass", to.atTime(23, 59, 59));
+        statisticsService.recordClassification("metal", to.plusDays(1).atStartOfDay());
+
+        assertEquals(Map.of("glass", 1L, "plastic", 1L), statisticsService.getDistribution(from, to));
+        assertEquals(Map.of("plastic", 1L), statisticsService.getDistribution(from, from));
+        assertTrue(statisticsService.getDistribution(to.plusDays(2), to.plusDays(9)).isEmpty());
+        assertEquals(4, statisticsService.getTotal());
+    }
+
+    @Test
+    void concurrentUpdatesAreAllCounted() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    statisticsService.recordClassification("plastic", DAY.atTime(12, 0));
+                    statisticsService.recordClassification("paper", DAY.atTime(12, 0));
+                    statisticsService.removeClassification("paper", DAY.atTime(12, 0));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertEquals(4000, statisticsService.getTotal());
+        assertEquals(Map.of("plastic", 4000L), statisticsService.getDistribution());
+    }
+
+    // Saved through JPA, then moved to the given time (createdAt is set on persist)
+    private void insert(String predictedClass, LocalDateTime createdAt) {
+        Classification classification = classificationRepository.save(new Classification(predictedClass, 0.9, "test.jpg"));
+        jdbcTemplate.update("UPDATE classifications SET created_at = ? WHERE id = ?",
+                Timestamp.valueOf(createdAt), classification.getId());
+    }
+}
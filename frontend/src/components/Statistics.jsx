@@ -12,6 +12,57 @@ function Statistics() {
     fetchStatistics();
   }, [timeframe]);
 
+  // Live updates: the backend pushes a delta for every new or deleted classification
+  useEffect(() => {
+    const source = new EventSource('http://localhost:8080/api/statistics/stream');
+    let connected = false;
+
+    // Deltas sent while the stream was down are lost, so reload after a reconnect
+    source.onopen = () => {
+      if (connected) {
+        fetchStatistics();
+      }
+      connected = true;
+    };
+
+    source.addEventListener('classification', (event) => {
+      const delta = JSON.parse(event.data);
+      setStats((current) => applyDelta(current, delta));
+    });
+
+    source.addEventListener('reset', () => {
+      fetchStatistics();
+    });
+
+    return () => source.close();
+  }, [timeframe]);
+
+  const applyDelta = (current, delta) => {
+    if (!current || !delta.date) {
+      return current;
+    }
+
+    // "all" shows monthly buckets keyed by the first day of the month
+    const bucket = timeframe === 'all' ? `${delta.date.slice(0, 7)}-01` : delta.date;
+    const inTrend = current.dailyTrend.some((item) => item.date === bucket);
+    if (!inTrend && timeframe !== 'all') {
+      return current;
+    }
+
+    const distribution = current.distribution.some((item) => item.name === delta.name)
+      ? current.distribution.map((item) =>
+          item.name === delta.name ? { ...item, count: item.count + delta.delta } : item)
+      : [...current.distribution, { name: delta.name, count: delta.delta }];
+
+    return {
+      ...current,
+      totalClassifications: current.totalClassifications + delta.delta,
+      distribution: distribution.filter((item) => item.count > 0),
+      dailyTrend: current.dailyTrend.map((item) =>
+        item.date === bucket ? { ...item, count: item.count + delta.delta } : item)
+    };
+  };
+
   const fetchStatistics = async () => {
     try {
       setLoading(true);